@@ -8,6 +8,8 @@ import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ToolBar;
 import javafx.scene.control.Button;
 import javafx.scene.image.ImageView;
@@ -16,6 +18,7 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.DirectoryChooser;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.scene.image.Image;
 import javafx.scene.transform.Rotate;
@@ -24,6 +27,11 @@ import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -31,6 +39,9 @@ import com.drew.imaging.*;
 import com.drew.metadata.*;
 import com.drew.metadata.exif.*;
 
+import com.efsavage.picknick.preview.ExifDates;
+import com.efsavage.picknick.preview.PreviewExtractors;
+
 public class Picknick extends Application {
 
     private List<File> imageFiles = new ArrayList<>();
@@ -39,18 +50,18 @@ public class Picknick extends Application {
     private File tempImageFile;
     private Map<String, Image> preloadedImages = Collections.synchronizedMap(new HashMap<>());
     private Map<String, File> preloadedTempFiles = Collections.synchronizedMap(new HashMap<>());
-    private Map<String, String> preloadedCaptureDates = Collections.synchronizedMap(new HashMap<>());
+    private Map<String, LocalDateTime> captureTimes = new ConcurrentHashMap<>();
     private Stage primaryStage;
     private boolean isZoomedIn = false;
     private double zoomScale = 2.0; // Zoom scale factor
+    private Set<String> zoomPreviewKeys = new HashSet<>(); // Images that already had a larger preview fetched for zoom
 
     private String dcrawPath = "dcraw"; // Assuming dcraw is on the PATH
     private String initialDirectoryPath = "x:/Dropbox/z8/import/pick";
     private File initialDirectory;
-    private File keepDirectory;
-    private File skipDirectory;
-    private File maybeDirectory;
-    private List<File> processedDirectories = new ArrayList<>();
+    private List<CullFolder> cullFolders = new ArrayList<>();
+    private Map<File, CullFolder> foldersByDirectory = new HashMap<>();
+    private boolean processingMaybes = false;
 
     // Variables for dragging
     private double dragStartX;
@@ -59,6 +70,10 @@ public class Picknick extends Application {
     // Executor for preloading images
     private ExecutorService preloadExecutor = Executors.newFixedThreadPool(4);
     private static final int PRELOAD_COUNT = 10; // Number of images to preload ahead
+    private static final DateTimeFormatter CAPTURE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Executor for listing directories and reading metadata
+    private ExecutorService scanExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
 
     // Variables for rotation
     private double currentRotationAngle = 0.0; // Current rotation angle in degrees
@@ -94,9 +109,9 @@ public class Picknick extends Application {
         root.setCenter(imageView);
         BorderPane.setMargin(imageView, new Insets(10));
 
-        // Load images from the initial directory
+        // Load images from every folder under the initial directory
         selectInitialDirectory();
-        processDirectory(initialDirectory);
+        processRootDirectory();
 
         Scene scene = new Scene(root, 800, 600);
 
@@ -154,6 +169,14 @@ public class Picknick extends Application {
         imageView.fitHeightProperty().bind(fitHeight);
         imageView.setPreserveRatio(true);
 
+        // Previews are sized for the window, so re-extract the ones that become too small when it grows
+        imageView.fitWidthProperty().addListener((observable, oldWidth, newWidth) ->
+                dropUndersizedPreviews(previewTargetWidth(oldWidth.doubleValue()), previewTargetHeight(),
+                        previewTargetWidth(newWidth.doubleValue()), previewTargetHeight()));
+        imageView.fitHeightProperty().addListener((observable, oldHeight, newHeight) ->
+                dropUndersizedPreviews(previewTargetWidth(), previewTargetHeight(oldHeight.doubleValue()),
+                        previewTargetWidth(), previewTargetHeight(newHeight.doubleValue())));
+
         primaryStage.show();
     }
 
@@ -174,7 +197,7 @@ public class Picknick extends Application {
         }
 
         DirectoryChooser directoryChooser = new DirectoryChooser();
-        directoryChooser.setTitle("Select Image Directory");
+        directoryChooser.setTitle("Select Root Directory");
         if (defaultDirectory.exists()) {
             directoryChooser.setInitialDirectory(defaultDirectory);
         }
@@ -188,63 +211,226 @@ public class Picknick extends Application {
         }
 
         System.out.println("Selected initial directory: " + initialDirectory.getAbsolutePath());
+    }
 
-        keepDirectory = new File(initialDirectory, "keep");
-        skipDirectory = new File(initialDirectory, "skip");
-        maybeDirectory = new File(initialDirectory, "maybe");
-
-        keepDirectory.mkdirs();
-        skipDirectory.mkdirs();
-        maybeDirectory.mkdirs();
+    private void processRootDirectory() {
+        System.out.println("Scanning directory tree: " + initialDirectory.getAbsolutePath());
+        File root = initialDirectory;
+        processDirectories(false, () -> {
+            List<DirectoryListing> listings = listDirectories(List.of(root), true);
+            List<CullFolder> folders = new ArrayList<>();
+            List<File> files = new ArrayList<>();
+            for (DirectoryListing listing : listings) {
+                if (!listing.rawFiles().isEmpty() || listing.hasMaybeDirectory()) {
+                    CullFolder folder = new CullFolder(listing.directory());
+                    folder.createDirectories();
+                    folders.add(folder);
+                }
+                files.addAll(listing.rawFiles());
+            }
+            return new ScanResult(folders, sortByCaptureTime(files));
+        });
+    }
 
-        System.out.println("Keep directory: " + keepDirectory.getAbsolutePath());
-        System.out.println("Skip directory: " + skipDirectory.getAbsolutePath());
-        System.out.println("Maybe directory: " + maybeDirectory.getAbsolutePath());
+    private void processMaybeDirectories() {
+        List<CullFolder> folders = new ArrayList<>(cullFolders);
+        List<File> maybeDirectories = new ArrayList<>();
+        for (CullFolder folder : folders) {
+            if (folder.maybeDirectory().isDirectory()) {
+                maybeDirectories.add(folder.maybeDirectory());
+            }
+        }
+        System.out.println("Processing " + maybeDirectories.size() + " maybe directories");
+        processDirectories(true, () -> {
+            List<File> files = new ArrayList<>();
+            for (DirectoryListing listing : listDirectories(maybeDirectories, false)) {
+                files.addAll(listing.rawFiles());
+            }
+            return new ScanResult(folders, sortByCaptureTime(files));
+        });
     }
 
-    private void processDirectory(File directory) {
+    private void processDirectories(boolean maybes, Callable<ScanResult> scan) {
         imageFiles.clear();
         currentIndex = 0;
+        processingMaybes = maybes;
+        updateTitle("Scanning...");
 
-        System.out.println("Processing directory: " + directory.getAbsolutePath());
+        Task<ScanResult> scanTask = new Task<ScanResult>() {
+            @Override
+            protected ScanResult call() throws Exception {
+                return scan.call();
+            }
 
-        File[] files = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".nef"));
-        if (files != null && files.length > 0) {
-            Arrays.sort(files); // Sort files alphabetically
-            for (File file : files) {
-                imageFiles.add(file);
-                System.out.println("Found image file: " + file.getName());
+            @Override
+            protected void succeeded() {
+                super.succeeded();
+                ScanResult result = getValue();
+                cullFolders = result.folders();
+                foldersByDirectory.clear();
+                for (CullFolder folder : cullFolders) {
+                    foldersByDirectory.put(folder.directory(), folder);
+                    foldersByDirectory.put(folder.maybeDirectory(), folder);
+                }
+                imageFiles.addAll(result.imageFiles());
+                System.out.println("Found " + imageFiles.size() + " raw files in " + cullFolders.size() + " folders");
+
+                if (!imageFiles.isEmpty()) {
+                    showImage();
+                } else if (processingMaybes) {
+                    // All done
+                    finishCulling();
+                } else {
+                    // No images left in the source folders, process 'maybe' directories
+                    processMaybeDirectories();
+                }
             }
-            showImage();
-        } else {
-            // No images in this directory, proceed to next
-            processedDirectories.add(directory);
-            System.out.println("No NEF files found in directory: " + directory.getAbsolutePath());
-            if (directory.equals(maybeDirectory)) {
-                // All done
-                cleanupEmptyDirectories();
-                System.out.println("All images have been processed.");
-                showAlert("Done", "All images have been processed.");
-                openKeepDirectoryAndExit();
-            } else {
-                // If main directory is done, process 'maybe' directory
-                processDirectory(maybeDirectory);
+
+            @Override
+            protected void failed() {
+                super.failed();
+                Throwable e = getException();
+                e.printStackTrace();
+                System.out.println("Failed to scan directories under: " + initialDirectory.getAbsolutePath());
+
+                // Nothing is loaded, so either try again or exit rather than leave an empty window
+                ButtonType retry = new ButtonType("Retry", ButtonBar.ButtonData.OK_DONE);
+                ButtonType exit = new ButtonType("Exit", ButtonBar.ButtonData.CANCEL_CLOSE);
+                Alert alert = new Alert(Alert.AlertType.ERROR,
+                        "Failed to scan directories under: " + initialDirectory.getAbsolutePath(), retry, exit);
+                alert.setHeaderText(null);
+                alert.setTitle("Error");
+                if (alert.showAndWait().orElse(exit) == retry) {
+                    processDirectories(maybes, scan);
+                } else {
+                    System.exit(0);
+                }
+            }
+        };
+
+        new Thread(scanTask).start();
+    }
+
+    // Lists directories level by level, each level in parallel, skipping the keep/skip/maybe targets.
+    // Directories are tracked by real path so links back to an ancestor are only listed once.
+    private List<DirectoryListing> listDirectories(List<File> directories, boolean recursive)
+            throws InterruptedException, ExecutionException {
+        List<DirectoryListing> listings = new ArrayList<>();
+        Set<Path> visited = new HashSet<>();
+        List<File> level = new ArrayList<>();
+        for (File directory : directories) {
+            if (markVisited(directory, visited)) {
+                level.add(directory);
             }
         }
+        while (!level.isEmpty()) {
+            List<Callable<DirectoryListing>> listTasks = new ArrayList<>();
+            for (File directory : level) {
+                listTasks.add(() -> listDirectory(directory));
+            }
+
+            List<File> nextLevel = new ArrayList<>();
+            for (Future<DirectoryListing> future : scanExecutor.invokeAll(listTasks)) {
+                DirectoryListing listing = future.get();
+                listings.add(listing);
+                if (recursive) {
+                    for (File subdirectory : listing.subdirectories()) {
+                        if (markVisited(subdirectory, visited)) {
+                            nextLevel.add(subdirectory);
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        return listings;
+    }
+
+    private boolean markVisited(File directory, Set<Path> visited) {
+        try {
+            return visited.add(directory.toPath().toRealPath());
+        } catch (IOException e) {
+            System.out.println("Skipping unreadable directory: " + directory.getAbsolutePath());
+            return false;
+        }
+    }
+
+    private DirectoryListing listDirectory(File directory) {
+        List<File> subdirectories = new ArrayList<>();
+        List<File> rawFiles = new ArrayList<>();
+        boolean hasMaybeDirectory = false;
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory.toPath())) {
+            for (Path entry : entries) {
+                // One attribute read per entry; a folder named like "day1.nef" must not be culled as a raw file
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    System.out.println("Skipping unreadable entry: " + entry);
+                    continue;
+                }
+
+                File file = entry.toFile();
+                if (attributes.isRegularFile()) {
+                    if (PreviewExtractors.supports(file)) {
+                        rawFiles.add(file);
+                    }
+                } else if (attributes.isDirectory()) {
+                    if (CullFolder.isTargetDirectory(file)) {
+                        hasMaybeDirectory |= file.getName().equalsIgnoreCase(CullFolder.MAYBE);
+                    } else if (!Files.isHidden(entry)) {
+                        subdirectories.add(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.out.println("Failed to list directory: " + directory.getAbsolutePath());
+        }
+        return new DirectoryListing(directory, subdirectories, rawFiles, hasMaybeDirectory);
+    }
+
+    // Reads capture times for all files in parallel and merges them into capture time order
+    private List<File> sortByCaptureTime(List<File> files) throws InterruptedException, ExecutionException {
+        List<Callable<Void>> metadataTasks = new ArrayList<>();
+        for (File file : files) {
+            metadataTasks.add(() -> {
+                captureTimes.put(file.getAbsolutePath(), readCaptureTime(file));
+                return null;
+            });
+        }
+        for (Future<Void> future : scanExecutor.invokeAll(metadataTasks)) {
+            future.get();
+        }
+
+        List<File> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparing((File file) -> captureTimes.get(file.getAbsolutePath()))
+                .thenComparing(File::getName)
+                .thenComparing(File::getPath));
+        return sorted;
+    }
+
+    private CullFolder folderFor(File imageFile) {
+        return foldersByDirectory.get(imageFile.getParentFile());
+    }
+
+    private String displayName(File imageFile) {
+        return initialDirectory.toPath().relativize(imageFile.toPath()).toString();
     }
 
     private void showImage() {
         if (currentIndex < imageFiles.size()) {
             File nefFile = imageFiles.get(currentIndex);
             String fileKey = nefFile.getAbsolutePath();
-            System.out.println("Displaying image: " + nefFile.getName());
+            System.out.println("Displaying image: " + displayName(nefFile));
 
             if (preloadedImages.containsKey(fileKey)) {
                 // Use preloaded image
                 Image image = preloadedImages.get(fileKey);
                 imageView.setImage(image);
                 tempImageFile = preloadedTempFiles.get(fileKey);
-                String captureDateTime = preloadedCaptureDates.get(fileKey);
+                String captureDateTime = getCaptureDateTime(nefFile);
                 System.out.println("Used preloaded image for: " + nefFile.getName());
 
                 // Reset transformations
@@ -252,9 +438,9 @@ public class Picknick extends Application {
 
                 // Update title with capture date and time
                 if (captureDateTime != null) {
-                    updateTitle(nefFile.getName() + " - " + captureDateTime);
+                    updateTitle(displayName(nefFile) + " - " + captureDateTime);
                 } else {
-                    updateTitle(nefFile.getName());
+                    updateTitle(displayName(nefFile));
                 }
 
                 // Preload next images
@@ -262,6 +448,8 @@ public class Picknick extends Application {
 
             } else {
                 // Load image in background thread
+                double targetWidth = previewTargetWidth();
+                double targetHeight = previewTargetHeight();
                 Task<Void> loadImageTask = new Task<Void>() {
                     private Image image;
                     private String captureDateTime;
@@ -269,7 +457,7 @@ public class Picknick extends Application {
 
                     @Override
                     protected Void call() throws Exception {
-                        tempFile = convertNEFToJPEG(nefFile);
+                        tempFile = extractPreview(nefFile, targetWidth, targetHeight);
                         image = new Image(tempFile.toURI().toString());
                         captureDateTime = getCaptureDateTime(nefFile);
                         return null;
@@ -286,16 +474,15 @@ public class Picknick extends Application {
                             // Store in preloaded maps
                             preloadedImages.put(fileKey, image);
                             preloadedTempFiles.put(fileKey, tempFile);
-                            preloadedCaptureDates.put(fileKey, captureDateTime);
 
                             // Reset transformations
                             resetImageViewTransforms();
 
                             // Update title
                             if (captureDateTime != null) {
-                                updateTitle(nefFile.getName() + " - " + captureDateTime);
+                                updateTitle(displayName(nefFile) + " - " + captureDateTime);
                             } else {
-                                updateTitle(nefFile.getName());
+                                updateTitle(displayName(nefFile));
                             }
 
                             // Preload next images
@@ -312,8 +499,8 @@ public class Picknick extends Application {
                         // Handle failure
                         Throwable e = getException();
                         e.printStackTrace();
-                        System.out.println("Error converting NEF to JPEG: " + nefFile.getName());
-                        moveToDirectory(nefFile, skipDirectory);
+                        System.out.println("Error extracting preview: " + nefFile.getName());
+                        moveToDirectory(nefFile, folderFor(nefFile).skipDirectory());
                         deleteTempImageFile();
                         imageFiles.remove(currentIndex);
                         // Do not adjust currentIndex here
@@ -326,18 +513,8 @@ public class Picknick extends Application {
             }
 
         } else {
-            // Proceed to next directory if any
-            processedDirectories.add(initialDirectory);
-            if (initialDirectory.equals(maybeDirectory)) {
-                // All done
-                cleanupEmptyDirectories();
-                System.out.println("All images have been processed.");
-                showAlert("Done", "All images have been processed.");
-                openKeepDirectoryAndExit();
-            } else {
-                // Process 'maybe' directory
-                processDirectory(maybeDirectory);
-            }
+            // Process 'maybe' directories until they are empty
+            processMaybeDirectories();
         }
     }
 
@@ -354,9 +531,10 @@ public class Picknick extends Application {
             }
             return false;
         });
-        preloadedCaptureDates.keySet().removeIf(key -> !imageFiles.contains(new File(key)));
 
         int maxIndex = Math.min(currentIndex + PRELOAD_COUNT, imageFiles.size());
+        double targetWidth = previewTargetWidth();
+        double targetHeight = previewTargetHeight();
 
         for (int index = currentIndex + 1; index < maxIndex; index++) {
             File nefFile = imageFiles.get(index);
@@ -368,13 +546,11 @@ public class Picknick extends Application {
                 Task<Void> preloadTask = new Task<Void>() {
                     private Image image;
                     private File tempFile;
-                    private String captureDateTime;
 
                     @Override
                     protected Void call() throws Exception {
-                        tempFile = convertNEFToJPEG(nefFile);
+                        tempFile = extractPreview(nefFile, targetWidth, targetHeight);
                         image = new Image(tempFile.toURI().toString());
-                        captureDateTime = getCaptureDateTime(nefFile);
                         return null;
                     }
 
@@ -382,13 +558,15 @@ public class Picknick extends Application {
                     protected void succeeded() {
                         super.succeeded();
                         // Check if the file is still in the list
-                        if (imageFiles.contains(nefFile)) {
+                        // The window may have grown while this was loading
+                        boolean undersized = coversPreviewTarget(image, targetWidth, targetHeight)
+                                && !coversPreviewTarget(image, previewTargetWidth(), previewTargetHeight());
+                        if (imageFiles.contains(nefFile) && !undersized) {
                             preloadedImages.put(fileKey, image);
                             preloadedTempFiles.put(fileKey, tempFile);
-                            preloadedCaptureDates.put(fileKey, captureDateTime);
                             System.out.println("Preloaded image: " + nefFile.getName());
                         } else {
-                            // File has been moved or removed; discard this preloaded image
+                            // File has been moved or removed, or the preview is too small; discard this preloaded image
                             tempFile.delete();
                             System.out.println("Discarded preloaded image: " + nefFile.getName());
                         }
@@ -399,7 +577,7 @@ public class Picknick extends Application {
                         super.failed();
                         Throwable e = getException();
                         e.printStackTrace();
-                        System.out.println("Error preloading NEF to JPEG: " + nefFile.getName());
+                        System.out.println("Error preloading preview: " + nefFile.getName());
                     }
                 };
 
@@ -409,30 +587,56 @@ public class Picknick extends Application {
     }
 
     private String getCaptureDateTime(File imageFile) {
+        LocalDateTime captureTime = captureTimes.get(imageFile.getAbsolutePath());
+        return captureTime != null ? captureTime.format(CAPTURE_TIME_FORMAT) : null;
+    }
+
+    // Every file is keyed by wall-clock time so the session merges in capture order across camera brands.
+    // Falls back to the file time so undated files still interleave with the rest of the session.
+    private LocalDateTime readCaptureTime(File imageFile) {
+        LocalDateTime captureTime = readMetadataCaptureTime(imageFile);
+        if (captureTime != null) {
+            return captureTime;
+        }
+        System.out.println("Using file time as capture time: " + imageFile.getName());
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(imageFile.lastModified()), ZoneId.systemDefault());
+    }
+
+    private LocalDateTime readMetadataCaptureTime(File imageFile) {
         try {
+            LocalDateTime extractorTime = PreviewExtractors.readCaptureTime(imageFile);
+            if (extractorTime != null) {
+                return extractorTime;
+            }
+
             Metadata metadata = ImageMetadataReader.readMetadata(imageFile);
 
             // NEF files may store date in different directories
             ExifIFD0Directory exifIFD0Directory = metadata.getFirstDirectoryOfType(ExifIFD0Directory.class);
             ExifSubIFDDirectory exifSubIFDDirectory = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
 
-            java.util.Date captureDate = null;
+            // Read the raw strings: getDateOriginal() applies OffsetTimeOriginal when a body writes it,
+            // which would mix UTC and wall-clock times between cameras
+            LocalDateTime captureTime = null;
 
             if (exifSubIFDDirectory != null) {
-                captureDate = exifSubIFDDirectory.getDateOriginal();
+                captureTime = ExifDates.parse(exifSubIFDDirectory.getString(ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL),
+                        exifSubIFDDirectory.getString(ExifSubIFDDirectory.TAG_SUBSECOND_TIME_ORIGINAL));
             }
 
-            if (captureDate == null && exifIFD0Directory != null) {
-                captureDate = exifIFD0Directory.getDate(ExifIFD0Directory.TAG_DATETIME);
+            if (captureTime == null && exifIFD0Directory != null) {
+                String subSecond = exifSubIFDDirectory != null
+                        ? exifSubIFDDirectory.getString(ExifSubIFDDirectory.TAG_SUBSECOND_TIME) : null;
+                captureTime = ExifDates.parse(exifIFD0Directory.getString(ExifIFD0Directory.TAG_DATETIME), subSecond);
             }
 
-            if (captureDate != null) {
-                System.out.println("Capture date: " + captureDate.toString());
-                return captureDate.toString();
+            if (captureTime != null) {
+                return captureTime;
             } else {
-                System.out.println("Capture date not found in metadata.");
+                System.out.println("Capture time not found in metadata: " + imageFile.getName());
             }
-        } catch (ImageProcessingException | IOException e) {
+        } catch (ImageProcessingException | IOException | RuntimeException e) {
+            // A corrupt file only loses its date; it is still culled and fails on its own if it can't be shown
             System.out.println("Failed to read metadata from: " + imageFile.getName());
             e.printStackTrace();
         }
@@ -485,19 +689,162 @@ public class Picknick extends Application {
 
             isZoomedIn = true;
             System.out.println("Zoomed in at position (" + mouseX + ", " + mouseY + ")");
+
+            loadZoomPreview();
+        }
+    }
+
+    // The fitted preview is only sized for the window, so fetch a larger one once the user zooms in
+    private void loadZoomPreview() {
+        if (currentIndex >= imageFiles.size()) {
+            return;
+        }
+        File nefFile = imageFiles.get(currentIndex);
+        String fileKey = nefFile.getAbsolutePath();
+        Image currentImage = imageView.getImage();
+        double targetWidth = previewTargetWidth() * zoomScale;
+        double targetHeight = previewTargetHeight() * zoomScale;
+        if (currentImage == null || coversPreviewTarget(currentImage, targetWidth, targetHeight)
+                || !zoomPreviewKeys.add(fileKey)) {
+            // Already sharp enough, or a larger preview was already tried for this image
+            return;
+        }
+
+        Task<Void> zoomTask = new Task<Void>() {
+            private Image image;
+            private File tempFile;
+
+            @Override
+            protected Void call() throws Exception {
+                tempFile = extractPreview(nefFile, targetWidth, targetHeight);
+                image = new Image(tempFile.toURI().toString());
+                return null;
+            }
+
+            @Override
+            protected void succeeded() {
+                super.succeeded();
+                boolean stillShown = currentIndex < imageFiles.size() && imageFiles.get(currentIndex).equals(nefFile)
+                        && imageView.getImage() == currentImage;
+                if (stillShown && image.getWidth() > currentImage.getWidth()) {
+                    // Swap in place; the fit size and the zoom transforms stay the same
+                    imageView.setImage(image);
+                    preloadedImages.put(fileKey, image);
+                    File oldTempFile = preloadedTempFiles.put(fileKey, tempFile);
+                    if (oldTempFile != null && !oldTempFile.equals(tempFile)) {
+                        oldTempFile.delete();
+                    }
+                    tempImageFile = tempFile;
+                    System.out.println("Loaded " + (int) image.getWidth() + "x" + (int) image.getHeight()
+                            + " zoom preview for: " + nefFile.getName());
+                } else {
+                    tempFile.delete();
+                }
+            }
+
+            @Override
+            protected void failed() {
+                super.failed();
+                Throwable e = getException();
+                e.printStackTrace();
+                System.out.println("Error loading zoom preview: " + nefFile.getName());
+            }
+        };
+
+        new Thread(zoomTask).start();
+    }
+
+    // Preview size in device pixels for the fitted view,
+    // falling back to the screen size before the window is laid out
+    private double previewTargetWidth() {
+        return previewTargetWidth(imageView.getFitWidth());
+    }
+
+    private double previewTargetWidth(double fitWidth) {
+        if (fitWidth <= 0) {
+            Screen screen = Screen.getPrimary();
+            return screen.getVisualBounds().getWidth() * screen.getOutputScaleX();
         }
+        return fitWidth * primaryStage.getOutputScaleX();
     }
 
-    private File convertNEFToJPEG(File nefFile) throws IOException {
+    private double previewTargetHeight() {
+        return previewTargetHeight(imageView.getFitHeight());
+    }
+
+    private double previewTargetHeight(double fitHeight) {
+        if (fitHeight <= 0) {
+            Screen screen = Screen.getPrimary();
+            return screen.getVisualBounds().getHeight() * screen.getOutputScaleY();
+        }
+        return fitHeight * primaryStage.getOutputScaleY();
+    }
+
+    private static boolean coversPreviewTarget(Image image, double targetWidth, double targetHeight) {
+        return image.getWidth() >= targetWidth || image.getHeight() >= targetHeight;
+    }
+
+    // Drops previews that covered the old target but not the new one; previews that didn't cover the old
+    // target were already the largest available, so extracting them again wouldn't help
+    private void dropUndersizedPreviews(double oldWidth, double oldHeight, double newWidth, double newHeight) {
+        if (newWidth <= oldWidth && newHeight <= oldHeight) {
+            return;
+        }
+
+        List<String> undersized = new ArrayList<>();
+        synchronized (preloadedImages) {
+            for (Map.Entry<String, Image> entry : preloadedImages.entrySet()) {
+                Image image = entry.getValue();
+                if (coversPreviewTarget(image, oldWidth, oldHeight) && !coversPreviewTarget(image, newWidth, newHeight)) {
+                    undersized.add(entry.getKey());
+                }
+            }
+        }
+        if (undersized.isEmpty()) {
+            return;
+        }
+
+        System.out.println("Dropping " + undersized.size() + " previews smaller than " + (int) newWidth + "x" + (int) newHeight);
+        for (String fileKey : undersized) {
+            dropPreloadedImage(fileKey);
+        }
+
+        if (currentIndex < imageFiles.size()) {
+            if (undersized.contains(imageFiles.get(currentIndex).getAbsolutePath())) {
+                // The displayed image is too small too, load a larger preview
+                tempImageFile = null;
+                showImage();
+            } else {
+                preloadNextImages();
+            }
+        }
+    }
+
+    private File extractPreview(File rawFile, double targetWidth, double targetHeight) throws IOException {
         // Create a temporary file for the JPEG image
         File jpegFile = File.createTempFile("temp_image", ".jpg");
         jpegFile.deleteOnExit();
 
+        try {
+            if (PreviewExtractors.extract(rawFile, jpegFile, targetWidth, targetHeight)) {
+                return jpegFile;
+            }
+            System.out.println("No embedded preview found, falling back to dcraw: " + rawFile.getName());
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.out.println("Failed to extract embedded preview, falling back to dcraw: " + rawFile.getName());
+        }
+
+        convertWithDcraw(rawFile, jpegFile);
+        return jpegFile;
+    }
+
+    private void convertWithDcraw(File rawFile, File jpegFile) throws IOException {
         String[] command = {
                 dcrawPath,
                 "-e", // Extract embedded thumbnail
                 "-c", // Write image data to standard output
-                nefFile.getAbsolutePath()
+                rawFile.getAbsolutePath()
         };
 
         ProcessBuilder pb = new ProcessBuilder(command);
@@ -505,7 +852,7 @@ public class Picknick extends Application {
         pb.redirectError(ProcessBuilder.Redirect.INHERIT);
         Process process = pb.start();
 
-        System.out.println("Converting NEF to JPEG: " + nefFile.getName());
+        System.out.println("Converting raw to JPEG with dcraw: " + rawFile.getName());
 
         try {
             int exitCode = process.waitFor();
@@ -517,14 +864,16 @@ public class Picknick extends Application {
             Thread.currentThread().interrupt();
             throw new IOException("dcraw process was interrupted", e);
         }
-
-        return jpegFile;
     }
 
     private void keepImage() {
+        if (currentIndex >= imageFiles.size()) {
+            // Still scanning, nothing to act on
+            return;
+        }
         File nefFile = imageFiles.get(currentIndex);
         System.out.println("Keeping image: " + nefFile.getName());
-        moveToDirectory(nefFile, keepDirectory);
+        moveToDirectory(nefFile, folderFor(nefFile).keepDirectory());
         imageFiles.remove(currentIndex);
         deleteTempImageFile();
         removePreloadedImage(nefFile.getAbsolutePath());
@@ -532,9 +881,13 @@ public class Picknick extends Application {
     }
 
     private void skipImage() {
+        if (currentIndex >= imageFiles.size()) {
+            // Still scanning, nothing to act on
+            return;
+        }
         File nefFile = imageFiles.get(currentIndex);
         System.out.println("Skipping image: " + nefFile.getName());
-        moveToDirectory(nefFile, skipDirectory);
+        moveToDirectory(nefFile, folderFor(nefFile).skipDirectory());
         imageFiles.remove(currentIndex);
         deleteTempImageFile();
         removePreloadedImage(nefFile.getAbsolutePath());
@@ -542,9 +895,13 @@ public class Picknick extends Application {
     }
 
     private void maybeImage() {
+        if (currentIndex >= imageFiles.size()) {
+            // Still scanning, nothing to act on
+            return;
+        }
         File nefFile = imageFiles.get(currentIndex);
         System.out.println("Marking image as maybe: " + nefFile.getName());
-        moveToDirectory(nefFile, maybeDirectory);
+        moveToDirectory(nefFile, folderFor(nefFile).maybeDirectory());
         imageFiles.remove(currentIndex);
         deleteTempImageFile();
         removePreloadedImage(nefFile.getAbsolutePath());
@@ -552,8 +909,13 @@ public class Picknick extends Application {
     }
 
     private void removePreloadedImage(String fileKey) {
+        dropPreloadedImage(fileKey);
+        captureTimes.remove(fileKey);
+    }
+
+    private void dropPreloadedImage(String fileKey) {
         preloadedImages.remove(fileKey);
-        preloadedCaptureDates.remove(fileKey);
+        zoomPreviewKeys.remove(fileKey);
         File tempFile = preloadedTempFiles.remove(fileKey);
         if (tempFile != null && tempFile.exists()) {
             tempFile.delete();
@@ -593,10 +955,19 @@ public class Picknick extends Application {
         });
     }
 
+    private void finishCulling() {
+        cleanupEmptyDirectories();
+        System.out.println("All images have been processed.");
+        showAlert("Done", "All images have been processed.");
+        openKeepDirectoryAndExit();
+    }
+
     private void cleanupEmptyDirectories() {
-        deleteDirectoryIfEmpty(keepDirectory);
-        deleteDirectoryIfEmpty(skipDirectory);
-        deleteDirectoryIfEmpty(maybeDirectory);
+        for (CullFolder folder : cullFolders) {
+            deleteDirectoryIfEmpty(folder.keepDirectory());
+            deleteDirectoryIfEmpty(folder.skipDirectory());
+            deleteDirectoryIfEmpty(folder.maybeDirectory());
+        }
         System.out.println("Cleaned up empty directories.");
     }
 
@@ -615,6 +986,15 @@ public class Picknick extends Application {
     }
 
     private void openKeepDirectoryAndExit() {
+        // With several folders there is no single keep directory, so open the root instead
+        List<File> keepDirectories = new ArrayList<>();
+        for (CullFolder folder : cullFolders) {
+            if (folder.keepDirectory().isDirectory()) {
+                keepDirectories.add(folder.keepDirectory());
+            }
+        }
+        File keepDirectory = keepDirectories.size() == 1 ? keepDirectories.get(0) : initialDirectory;
+
         if (Desktop.isDesktopSupported()) {
             try {
                 System.out.println("Opening keep directory: " + keepDirectory.getAbsolutePath());
@@ -633,6 +1013,7 @@ public class Picknick extends Application {
     public void stop() throws Exception {
         super.stop();
         preloadExecutor.shutdownNow();
+        scanExecutor.shutdownNow();
     }
 
     // New methods for rotation
@@ -648,6 +1029,36 @@ public class Picknick extends Application {
         System.out.println("Rotated counter-clockwise to " + currentRotationAngle + " degrees");
     }
 
+    // A folder of raw files with its own keep/skip/maybe targets
+    private record CullFolder(File directory, File keepDirectory, File skipDirectory, File maybeDirectory) {
+        static final String KEEP = "keep";
+        static final String SKIP = "skip";
+        static final String MAYBE = "maybe";
+
+        CullFolder(File directory) {
+            this(directory, new File(directory, KEEP), new File(directory, SKIP), new File(directory, MAYBE));
+        }
+
+        static boolean isTargetDirectory(File directory) {
+            String name = directory.getName();
+            return name.equalsIgnoreCase(KEEP) || name.equalsIgnoreCase(SKIP) || name.equalsIgnoreCase(MAYBE);
+        }
+
+        void createDirectories() {
+            keepDirectory.mkdirs();
+            skipDirectory.mkdirs();
+            maybeDirectory.mkdirs();
+            System.out.println("Culling folder: " + directory.getAbsolutePath());
+        }
+    }
+
+    private record DirectoryListing(File directory, List<File> subdirectories, List<File> rawFiles,
+                                    boolean hasMaybeDirectory) {
+    }
+
+    private record ScanResult(List<CullFolder> folders, List<File> imageFiles) {
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
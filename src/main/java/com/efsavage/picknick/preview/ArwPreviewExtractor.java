@@ -0,0 +1,11 @@
+package com.efsavage.picknick.preview;
+
+/**
+ * Sony ARW. IFD0 points at the large preview JPEG and IFD1 at the thumbnail.
+ */
+public class ArwPreviewExtractor extends TiffPreviewExtractor {
+
+    public ArwPreviewExtractor() {
+        super(".arw", ".sr2");
+    }
+}
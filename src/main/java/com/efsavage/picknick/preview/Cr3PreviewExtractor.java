@@ -0,0 +1,238 @@
+package com.efsavage.picknick.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Canon CR3, an ISO base media file. It holds three JPEGs: the THMB thumbnail in the Canon moov uuid box,
+ * the PRVW preview in its own uuid box, and the full size JPEG as the first sample of the first track.
+ * The Canon box also holds the Exif data as small TIFF files (CMT1 for IFD0, CMT2 for the Exif IFD),
+ * which metadata-extractor does not read for this format.
+ */
+public class Cr3PreviewExtractor implements PreviewExtractor {
+
+    private static final UUID CANON_UUID = UUID.fromString("85c0b687-820f-11e0-8111-f4ce462b6a48");
+    private static final UUID PREVIEW_UUID = UUID.fromString("eaf42b5e-1c98-4b88-b9fb-b7dc406e4d16");
+
+    // Offsets from the box start: THMB and PRVW keep the JPEG length at different places but both start the data at +24
+    private static final int THMB_LENGTH_OFFSET = 16;
+    private static final int PRVW_LENGTH_OFFSET = 20;
+    private static final int JPEG_DATA_OFFSET = 24;
+    // The PRVW box follows 8 unknown bytes after the uuid
+    private static final int PREVIEW_UUID_PADDING = 8;
+
+    private static final int TAG_DATETIME = 0x0132;
+    private static final int TAG_DATETIME_ORIGINAL = 0x9003;
+    private static final int TAG_SUBSEC_TIME = 0x9290;
+    private static final int TAG_SUBSEC_TIME_ORIGINAL = 0x9291;
+
+    @Override
+    public boolean supports(File rawFile) {
+        return rawFile.getName().toLowerCase(Locale.ROOT).endsWith(".cr3");
+    }
+
+    @Override
+    public List<EmbeddedPreview> findPreviews(File rawFile) throws IOException {
+        List<EmbeddedPreview> previews = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ)) {
+            for (Box box : children(channel, 0, channel.size())) {
+                if (box.is("moov")) {
+                    collectMoovPreviews(channel, box, previews);
+                } else if (box.is("uuid") && PREVIEW_UUID.equals(box.uuid())) {
+                    for (Box child : children(channel, box.contentStart() + PREVIEW_UUID_PADDING, box.end())) {
+                        if (child.is("PRVW")) {
+                            addBoxPreview(channel, child, PRVW_LENGTH_OFFSET, previews);
+                        }
+                    }
+                }
+            }
+        }
+        return previews;
+    }
+
+    @Override
+    public LocalDateTime readCaptureTime(File rawFile) throws IOException {
+        LocalDateTime dateTimeOriginal = null;
+        String dateTime = null;
+        String subSecTime = null;
+        try (FileChannel channel = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ)) {
+            Box moov = null;
+            for (Box box : children(channel, 0, channel.size())) {
+                if (box.is("moov")) {
+                    moov = box;
+                    break;
+                }
+            }
+            if (moov == null) {
+                return null;
+            }
+
+            for (Box box : children(channel, moov.contentStart(), moov.end())) {
+                if (box.is("uuid") && CANON_UUID.equals(box.uuid())) {
+                    for (Box child : children(channel, box.contentStart(), box.end())) {
+                        if (child.is("CMT1")) {
+                            TiffPreviewExtractor.Ifd ifd0 = readTiffIfd(channel, child);
+                            dateTime = ifd0 != null ? ifd0.getString(TAG_DATETIME) : null;
+                        } else if (child.is("CMT2")) {
+                            // DateTime lives in IFD0 but its SubSecTime lives in the Exif IFD
+                            TiffPreviewExtractor.Ifd exifIfd = readTiffIfd(channel, child);
+                            if (exifIfd != null) {
+                                dateTimeOriginal = ExifDates.parse(exifIfd.getString(TAG_DATETIME_ORIGINAL),
+                                        exifIfd.getString(TAG_SUBSEC_TIME_ORIGINAL));
+                                subSecTime = exifIfd.getString(TAG_SUBSEC_TIME);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return dateTimeOriginal != null ? dateTimeOriginal : ExifDates.parse(dateTime, subSecTime);
+    }
+
+    private static TiffPreviewExtractor.Ifd readTiffIfd(FileChannel channel, Box box) throws IOException {
+        TiffPreviewExtractor.Tiff tiff = TiffPreviewExtractor.Tiff.parse(channel, box.contentStart());
+        return tiff != null ? tiff.readIfd(tiff.firstIfdOffset) : null;
+    }
+
+    private void collectMoovPreviews(FileChannel channel, Box moov, List<EmbeddedPreview> previews) throws IOException {
+        boolean firstTrack = true;
+        for (Box box : children(channel, moov.contentStart(), moov.end())) {
+            if (box.is("uuid") && CANON_UUID.equals(box.uuid())) {
+                for (Box child : children(channel, box.contentStart(), box.end())) {
+                    if (child.is("THMB")) {
+                        addBoxPreview(channel, child, THMB_LENGTH_OFFSET, previews);
+                    }
+                }
+            } else if (box.is("trak") && firstTrack) {
+                firstTrack = false;
+                addFirstSamplePreview(channel, box, previews);
+            }
+        }
+    }
+
+    private void addBoxPreview(FileChannel channel, Box box, int lengthOffset, List<EmbeddedPreview> previews)
+            throws IOException {
+        ByteBuffer length = TiffPreviewExtractor.read(channel, box.start() + lengthOffset, 4, ByteOrder.BIG_ENDIAN);
+        if (length != null) {
+            addPreview(channel, box.start() + JPEG_DATA_OFFSET, length.getInt(0) & 0xFFFFFFFFL, previews);
+        }
+    }
+
+    private void addFirstSamplePreview(FileChannel channel, Box trak, List<EmbeddedPreview> previews) throws IOException {
+        Box stbl = find(channel, trak, "mdia", "minf", "stbl");
+        if (stbl == null) {
+            return;
+        }
+
+        long sampleOffset = -1;
+        long sampleSize = -1;
+        for (Box box : children(channel, stbl.contentStart(), stbl.end())) {
+            if (box.is("stsz")) {
+                // version/flags, default sample size, sample count, then per sample sizes
+                ByteBuffer stsz = TiffPreviewExtractor.read(channel, box.contentStart(), 16, ByteOrder.BIG_ENDIAN);
+                if (stsz != null) {
+                    long defaultSize = stsz.getInt(4) & 0xFFFFFFFFL;
+                    sampleSize = defaultSize != 0 ? defaultSize : stsz.getInt(12) & 0xFFFFFFFFL;
+                }
+            } else if (box.is("co64")) {
+                ByteBuffer co64 = TiffPreviewExtractor.read(channel, box.contentStart(), 16, ByteOrder.BIG_ENDIAN);
+                if (co64 != null) {
+                    sampleOffset = co64.getLong(8);
+                }
+            } else if (box.is("stco")) {
+                ByteBuffer stco = TiffPreviewExtractor.read(channel, box.contentStart(), 12, ByteOrder.BIG_ENDIAN);
+                if (stco != null) {
+                    sampleOffset = stco.getInt(8) & 0xFFFFFFFFL;
+                }
+            }
+        }
+        if (sampleOffset > 0 && sampleSize > 0) {
+            addPreview(channel, sampleOffset, sampleSize, previews);
+        }
+    }
+
+    private static void addPreview(FileChannel channel, long offset, long length, List<EmbeddedPreview> previews)
+            throws IOException {
+        EmbeddedPreview preview = EmbeddedPreview.probe(channel, offset, length);
+        if (preview != null) {
+            previews.add(preview);
+        }
+    }
+
+    private static Box find(FileChannel channel, Box parent, String... path) throws IOException {
+        Box current = parent;
+        for (String type : path) {
+            Box next = null;
+            for (Box child : children(channel, current.contentStart(), current.end())) {
+                if (child.is(type)) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static List<Box> children(FileChannel channel, long start, long end) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        long position = start;
+        while (position + 8 <= end) {
+            ByteBuffer header = TiffPreviewExtractor.read(channel, position, 8, ByteOrder.BIG_ENDIAN);
+            if (header == null) {
+                break;
+            }
+            long size = header.getInt(0) & 0xFFFFFFFFL;
+            String type = new String(new byte[]{header.get(4), header.get(5), header.get(6), header.get(7)},
+                    StandardCharsets.US_ASCII);
+            long headerLength = 8;
+            if (size == 1) {
+                ByteBuffer largeSize = TiffPreviewExtractor.read(channel, position + 8, 8, ByteOrder.BIG_ENDIAN);
+                if (largeSize == null) {
+                    break;
+                }
+                size = largeSize.getLong(0);
+                headerLength = 16;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < headerLength || position + size > end) {
+                break;
+            }
+
+            UUID uuid = null;
+            if ("uuid".equals(type)) {
+                ByteBuffer uuidBytes = TiffPreviewExtractor.read(channel, position + headerLength, 16, ByteOrder.BIG_ENDIAN);
+                if (uuidBytes == null) {
+                    break;
+                }
+                uuid = new UUID(uuidBytes.getLong(0), uuidBytes.getLong(8));
+                headerLength += 16;
+            }
+
+            boxes.add(new Box(type, uuid, position, position + headerLength, position + size));
+            position += size;
+        }
+        return boxes;
+    }
+
+    private record Box(String type, UUID uuid, long start, long contentStart, long end) {
+        boolean is(String boxType) {
+            return type.equals(boxType);
+        }
+    }
+}
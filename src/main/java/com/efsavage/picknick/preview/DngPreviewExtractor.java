@@ -0,0 +1,11 @@
+package com.efsavage.picknick.preview;
+
+/**
+ * Adobe DNG. Previews are reduced resolution SubIFDs with JPEG compressed strips.
+ */
+public class DngPreviewExtractor extends TiffPreviewExtractor {
+
+    public DngPreviewExtractor() {
+        super(".dng");
+    }
+}
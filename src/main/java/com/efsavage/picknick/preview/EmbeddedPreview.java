@@ -0,0 +1,107 @@
+package com.efsavage.picknick.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A JPEG stream stored at a fixed position inside a raw file.
+ */
+public record EmbeddedPreview(long offset, long length, int width, int height) {
+
+    private static final int MAX_MARKERS = 64;
+
+    public long pixelCount() {
+        return (long) width * height;
+    }
+
+    /**
+     * Copies the JPEG bytes into the target file, reading nothing else from the raw file.
+     */
+    public void copyTo(File rawFile, File jpegFile) throws IOException {
+        try (FileChannel in = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(jpegFile.toPath(), StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = offset;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = in.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    throw new IOException("Preview runs past the end of " + rawFile.getName());
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    /**
+     * Reads the JPEG markers at the given position to find the image dimensions.
+     * Returns null if the bytes are not a JPEG that JavaFX can decode, e.g. the lossless JPEG used for raw data.
+     */
+    static EmbeddedPreview probe(FileChannel channel, long offset, long length) throws IOException {
+        long end = offset + length;
+        if (offset <= 0 || length < 4 || end > channel.size()) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(9);
+        if (readFully(channel, buffer, offset, 2) < 2
+                || (buffer.get(0) & 0xFF) != 0xFF || (buffer.get(1) & 0xFF) != 0xD8) {
+            return null;
+        }
+
+        long position = offset + 2;
+        for (int i = 0; i < MAX_MARKERS && position + 4 <= end; i++) {
+            if (readFully(channel, buffer, position, 4) < 4 || (buffer.get(0) & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = buffer.get(1) & 0xFF;
+            if (marker == 0xFF) {
+                // Fill byte before the real marker
+                position++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Standalone markers carry no length
+                position += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // End of image or start of scan before any frame header
+                return null;
+            }
+
+            int segmentLength = ((buffer.get(2) & 0xFF) << 8) | (buffer.get(3) & 0xFF);
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                if (marker != 0xC0 && marker != 0xC1 && marker != 0xC2) {
+                    // Lossless, hierarchical or arithmetic coded frames are not decodable by JavaFX
+                    return null;
+                }
+                if (readFully(channel, buffer, position, 9) < 9) {
+                    return null;
+                }
+                int height = ((buffer.get(5) & 0xFF) << 8) | (buffer.get(6) & 0xFF);
+                int width = ((buffer.get(7) & 0xFF) << 8) | (buffer.get(8) & 0xFF);
+                if (width == 0 || height == 0) {
+                    return null;
+                }
+                return new EmbeddedPreview(offset, length, width, height);
+            }
+            position += 2 + segmentLength;
+        }
+        return null;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position, int count) throws IOException {
+        buffer.clear().limit(count);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+}
@@ -0,0 +1,43 @@
+package com.efsavage.picknick.preview;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses Exif date strings into the camera's local wall-clock time.
+ * Offset tags are ignored on purpose: not every body writes them, and cameras at the same shoot share a clock
+ * zone, so the wall-clock time is the one key every file can be ordered by.
+ */
+public final class ExifDates {
+
+    private static final DateTimeFormatter EXIF_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+
+    private ExifDates() {
+    }
+
+    /**
+     * Parses a "yyyy:MM:dd HH:mm:ss" value plus its optional SubSecTime digits, or returns null if it is missing
+     * or malformed, e.g. the all-zero or blank dates some cameras write.
+     */
+    public static LocalDateTime parse(String dateTime, String subSecond) {
+        if (dateTime == null || dateTime.isBlank()) {
+            return null;
+        }
+        LocalDateTime value;
+        try {
+            value = LocalDateTime.parse(dateTime.trim(), EXIF_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+
+        // SubSecTime holds the leading digits of the fraction, so "5" is 500ms and "045" is 45ms
+        if (subSecond != null) {
+            String digits = subSecond.trim();
+            if (!digits.isEmpty() && digits.length() <= 9 && digits.chars().allMatch(Character::isDigit)) {
+                value = value.withNano(Integer.parseInt((digits + "000000000").substring(0, 9)));
+            }
+        }
+        return value;
+    }
+}
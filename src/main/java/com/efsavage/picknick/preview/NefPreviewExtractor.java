@@ -0,0 +1,51 @@
+package com.efsavage.picknick.preview;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Nikon NEF/NRW. Besides the full size JPEG in the first SubIFD, the maker note holds a small preview IFD
+ * with offsets relative to its own TIFF header.
+ */
+public class NefPreviewExtractor extends TiffPreviewExtractor {
+
+    private static final int TAG_MAKER_NOTE = 0x927C;
+    private static final int TAG_NIKON_PREVIEW_IFD = 0x0011;
+    private static final byte[] NIKON_SIGNATURE = "Nikon\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int NIKON_HEADER_LENGTH = 10;
+
+    public NefPreviewExtractor() {
+        super(".nef", ".nrw");
+    }
+
+    @Override
+    protected void collectExtraPreviews(Tiff tiff, Ifd ifd0, List<EmbeddedPreview> previews) throws IOException {
+        long exifOffset = ifd0.getLong(TAG_EXIF_IFD, 0);
+        Ifd exifIfd = exifOffset > 0 ? tiff.readIfd(exifOffset) : null;
+        if (exifIfd == null) {
+            return;
+        }
+
+        long makerNotePosition = exifIfd.getDataPosition(TAG_MAKER_NOTE);
+        ByteBuffer signature = read(tiff.channel, makerNotePosition, NIKON_SIGNATURE.length, ByteOrder.BIG_ENDIAN);
+        if (signature == null || !signature.equals(ByteBuffer.wrap(NIKON_SIGNATURE))) {
+            return;
+        }
+
+        Tiff makerNote = Tiff.parse(tiff.channel, makerNotePosition + NIKON_HEADER_LENGTH);
+        Ifd makerNoteIfd = makerNote != null ? makerNote.readIfd(makerNote.firstIfdOffset) : null;
+        if (makerNoteIfd == null) {
+            return;
+        }
+
+        long previewIfdOffset = makerNoteIfd.getLong(TAG_NIKON_PREVIEW_IFD, 0);
+        Ifd previewIfd = previewIfdOffset > 0 ? makerNote.readIfd(previewIfdOffset) : null;
+        if (previewIfd != null) {
+            collectPreviews(makerNote, previewIfd, previews, new HashSet<>(), 0);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.efsavage.picknick.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service provider for pulling embedded JPEG previews out of a raw file without running an external decoder.
+ * Implementations are discovered with {@link java.util.ServiceLoader}, see {@link PreviewExtractors}.
+ */
+public interface PreviewExtractor {
+
+    /**
+     * Returns true if this extractor understands the given raw file, usually by looking at its extension.
+     */
+    boolean supports(File rawFile);
+
+    /**
+     * Returns every decodable JPEG preview embedded in the raw file, in no particular order.
+     * An empty list means the file has no usable preview and the caller should fall back to another decoder.
+     */
+    List<EmbeddedPreview> findPreviews(File rawFile) throws IOException;
+
+    /**
+     * Returns the capture time for formats the metadata library cannot read, or null to leave it to the library.
+     * The time is the camera's wall-clock time including sub-seconds, see {@link ExifDates}.
+     */
+    default LocalDateTime readCaptureTime(File rawFile) throws IOException {
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.efsavage.picknick.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up the installed {@link PreviewExtractor} providers and picks the preview to show for a raw file.
+ */
+public final class PreviewExtractors {
+
+    private static final List<PreviewExtractor> EXTRACTORS = loadExtractors();
+
+    private PreviewExtractors() {
+    }
+
+    private static List<PreviewExtractor> loadExtractors() {
+        List<PreviewExtractor> extractors = new ArrayList<>();
+        for (PreviewExtractor extractor : ServiceLoader.load(PreviewExtractor.class)) {
+            extractors.add(extractor);
+            System.out.println("Loaded preview extractor: " + extractor.getClass().getName());
+        }
+        return Collections.unmodifiableList(extractors);
+    }
+
+    public static List<PreviewExtractor> getExtractors() {
+        return EXTRACTORS;
+    }
+
+    public static boolean supports(File rawFile) {
+        return forFile(rawFile) != null;
+    }
+
+    public static PreviewExtractor forFile(File rawFile) {
+        for (PreviewExtractor extractor : EXTRACTORS) {
+            if (extractor.supports(rawFile)) {
+                return extractor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the capture time read by the file's extractor, or null if it leaves that to the metadata library.
+     */
+    public static LocalDateTime readCaptureTime(File rawFile) throws IOException {
+        PreviewExtractor extractor = forFile(rawFile);
+        return extractor != null ? extractor.readCaptureTime(rawFile) : null;
+    }
+
+    /**
+     * Writes the smallest embedded preview that still covers the target size into the JPEG file.
+     * Returns false if no extractor handles the file or it has no usable preview.
+     */
+    public static boolean extract(File rawFile, File jpegFile, double targetWidth, double targetHeight) throws IOException {
+        PreviewExtractor extractor = forFile(rawFile);
+        if (extractor == null) {
+            return false;
+        }
+        EmbeddedPreview preview = select(extractor.findPreviews(rawFile), targetWidth, targetHeight);
+        if (preview == null) {
+            return false;
+        }
+        preview.copyTo(rawFile, jpegFile);
+        System.out.println("Extracted " + preview.width() + "x" + preview.height() + " preview from: " + rawFile.getName());
+        return true;
+    }
+
+    /**
+     * Picks the smallest preview that is not upscaled when fitted into the target size with its aspect ratio kept,
+     * or the largest one if none is big enough.
+     */
+    public static EmbeddedPreview select(List<EmbeddedPreview> previews, double targetWidth, double targetHeight) {
+        EmbeddedPreview smallestSufficient = null;
+        EmbeddedPreview largest = null;
+        for (EmbeddedPreview preview : previews) {
+            if (largest == null || preview.pixelCount() > largest.pixelCount()) {
+                largest = preview;
+            }
+            boolean sufficient = preview.width() >= targetWidth || preview.height() >= targetHeight;
+            if (sufficient && (smallestSufficient == null || preview.pixelCount() < smallestSufficient.pixelCount())) {
+                smallestSufficient = preview;
+            }
+        }
+        return smallestSufficient != null ? smallestSufficient : largest;
+    }
+}
@@ -0,0 +1,303 @@
+package com.efsavage.picknick.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base for raw formats built on TIFF, which keep their JPEG previews in the IFD chain and in SubIFDs.
+ * Only the IFD entries are read, never the raw image data.
+ */
+public abstract class TiffPreviewExtractor implements PreviewExtractor {
+
+    protected static final int TAG_NEW_SUBFILE_TYPE = 0x00FE;
+    protected static final int TAG_COMPRESSION = 0x0103;
+    protected static final int TAG_STRIP_OFFSETS = 0x0111;
+    protected static final int TAG_STRIP_BYTE_COUNTS = 0x0117;
+    protected static final int TAG_SUB_IFDS = 0x014A;
+    protected static final int TAG_JPEG_OFFSET = 0x0201;
+    protected static final int TAG_JPEG_LENGTH = 0x0202;
+    protected static final int TAG_EXIF_IFD = 0x8769;
+
+    private static final int COMPRESSION_OLD_JPEG = 6;
+    private static final int COMPRESSION_JPEG = 7;
+    private static final int MAX_IFD_ENTRIES = 1024;
+    private static final int MAX_SUB_IFD_DEPTH = 3;
+
+    private final String[] extensions;
+
+    protected TiffPreviewExtractor(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    @Override
+    public boolean supports(File rawFile) {
+        String name = rawFile.getName().toLowerCase(Locale.ROOT);
+        for (String extension : extensions) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<EmbeddedPreview> findPreviews(File rawFile) throws IOException {
+        List<EmbeddedPreview> previews = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ)) {
+            Tiff tiff = Tiff.parse(channel, 0);
+            if (tiff == null) {
+                return previews;
+            }
+
+            Set<Long> visited = new HashSet<>();
+            Ifd ifd0 = null;
+            long ifdOffset = tiff.firstIfdOffset;
+            while (ifdOffset > 0 && visited.add(ifdOffset)) {
+                Ifd ifd = tiff.readIfd(ifdOffset);
+                if (ifd == null) {
+                    break;
+                }
+                if (ifd0 == null) {
+                    ifd0 = ifd;
+                }
+                collectPreviews(tiff, ifd, previews, visited, 0);
+                ifdOffset = ifd.nextIfdOffset;
+            }
+
+            if (ifd0 != null) {
+                collectExtraPreviews(tiff, ifd0, previews);
+            }
+        }
+        return previews;
+    }
+
+    /**
+     * Hook for formats that keep additional previews outside the IFD chain, e.g. in the maker note.
+     */
+    protected void collectExtraPreviews(Tiff tiff, Ifd ifd0, List<EmbeddedPreview> previews) throws IOException {
+    }
+
+    protected void collectPreviews(Tiff tiff, Ifd ifd, List<EmbeddedPreview> previews, Set<Long> visited, int depth)
+            throws IOException {
+        long jpegOffset = ifd.getLong(TAG_JPEG_OFFSET, 0);
+        long jpegLength = ifd.getLong(TAG_JPEG_LENGTH, 0);
+        if (jpegOffset > 0 && jpegLength > 0) {
+            addPreview(tiff, tiff.base + jpegOffset, jpegLength, previews);
+        } else {
+            long compression = ifd.getLong(TAG_COMPRESSION, 0);
+            boolean reducedResolution = (ifd.getLong(TAG_NEW_SUBFILE_TYPE, 0) & 1) != 0;
+            long[] stripOffsets = ifd.getLongs(TAG_STRIP_OFFSETS);
+            long[] stripByteCounts = ifd.getLongs(TAG_STRIP_BYTE_COUNTS);
+            if ((compression == COMPRESSION_OLD_JPEG || compression == COMPRESSION_JPEG) && reducedResolution
+                    && stripOffsets.length == 1 && stripByteCounts.length == 1) {
+                addPreview(tiff, tiff.base + stripOffsets[0], stripByteCounts[0], previews);
+            }
+        }
+
+        if (depth < MAX_SUB_IFD_DEPTH) {
+            for (long subIfdOffset : ifd.getLongs(TAG_SUB_IFDS)) {
+                if (subIfdOffset > 0 && visited.add(subIfdOffset)) {
+                    Ifd subIfd = tiff.readIfd(subIfdOffset);
+                    if (subIfd != null) {
+                        collectPreviews(tiff, subIfd, previews, visited, depth + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    protected static void addPreview(Tiff tiff, long offset, long length, List<EmbeddedPreview> previews)
+            throws IOException {
+        EmbeddedPreview preview = EmbeddedPreview.probe(tiff.channel, offset, length);
+        if (preview != null) {
+            previews.add(preview);
+        }
+    }
+
+    static ByteBuffer read(FileChannel channel, long position, int size, ByteOrder order) throws IOException {
+        if (position < 0 || size < 0 || position + size > channel.size()) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(order);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * A TIFF header; all offsets inside it are relative to {@code base}.
+     */
+    protected static final class Tiff {
+        final FileChannel channel;
+        final ByteOrder order;
+        final long base;
+        final long firstIfdOffset;
+
+        private Tiff(FileChannel channel, ByteOrder order, long base, long firstIfdOffset) {
+            this.channel = channel;
+            this.order = order;
+            this.base = base;
+            this.firstIfdOffset = firstIfdOffset;
+        }
+
+        static Tiff parse(FileChannel channel, long base) throws IOException {
+            ByteBuffer header = read(channel, base, 8, ByteOrder.BIG_ENDIAN);
+            if (header == null) {
+                return null;
+            }
+            ByteOrder order;
+            if (header.get(0) == 'I' && header.get(1) == 'I') {
+                order = ByteOrder.LITTLE_ENDIAN;
+            } else if (header.get(0) == 'M' && header.get(1) == 'M') {
+                order = ByteOrder.BIG_ENDIAN;
+            } else {
+                return null;
+            }
+            header.order(order);
+            return new Tiff(channel, order, base, header.getInt(4) & 0xFFFFFFFFL);
+        }
+
+        Ifd readIfd(long ifdOffset) throws IOException {
+            ByteBuffer countBuffer = read(channel, base + ifdOffset, 2, order);
+            if (countBuffer == null) {
+                return null;
+            }
+            int count = countBuffer.getShort(0) & 0xFFFF;
+            if (count == 0 || count > MAX_IFD_ENTRIES) {
+                return null;
+            }
+            ByteBuffer entries = read(channel, base + ifdOffset + 2, count * 12 + 4, order);
+            if (entries == null) {
+                return null;
+            }
+
+            Map<Integer, Entry> entryMap = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int position = i * 12;
+                int tag = entries.getShort(position) & 0xFFFF;
+                int type = entries.getShort(position + 2) & 0xFFFF;
+                long valueCount = entries.getInt(position + 4) & 0xFFFFFFFFL;
+                long valuePosition = base + ifdOffset + 2 + position + 8;
+                entryMap.put(tag, new Entry(type, valueCount, valuePosition));
+            }
+            long nextIfdOffset = entries.getInt(count * 12) & 0xFFFFFFFFL;
+            return new Ifd(this, entryMap, nextIfdOffset);
+        }
+    }
+
+    private record Entry(int type, long count, long valuePosition) {
+    }
+
+    /**
+     * The entries of one image file directory.
+     */
+    protected static final class Ifd {
+        private static final int TYPE_ASCII = 2;
+        private static final int TYPE_SHORT = 3;
+        private static final int TYPE_LONG = 4;
+        private static final int TYPE_IFD = 13;
+        private static final int MAX_VALUES = 256;
+
+        private final Tiff tiff;
+        private final Map<Integer, Entry> entries;
+        final long nextIfdOffset;
+
+        private Ifd(Tiff tiff, Map<Integer, Entry> entries, long nextIfdOffset) {
+            this.tiff = tiff;
+            this.entries = entries;
+            this.nextIfdOffset = nextIfdOffset;
+        }
+
+        /**
+         * Returns the first value of a SHORT or LONG entry, or the default if it is missing.
+         */
+        long getLong(int tag, long defaultValue) throws IOException {
+            long[] values = getLongs(tag);
+            return values.length > 0 ? values[0] : defaultValue;
+        }
+
+        long[] getLongs(int tag) throws IOException {
+            Entry entry = entries.get(tag);
+            if (entry == null || entry.count() == 0 || entry.count() > MAX_VALUES) {
+                return new long[0];
+            }
+            int size;
+            if (entry.type() == TYPE_SHORT) {
+                size = 2;
+            } else if (entry.type() == TYPE_LONG || entry.type() == TYPE_IFD) {
+                size = 4;
+            } else {
+                return new long[0];
+            }
+
+            int count = (int) entry.count();
+            long position = entry.valuePosition();
+            if (count * size > 4) {
+                ByteBuffer pointer = read(tiff.channel, position, 4, tiff.order);
+                if (pointer == null) {
+                    return new long[0];
+                }
+                position = tiff.base + (pointer.getInt(0) & 0xFFFFFFFFL);
+            }
+            ByteBuffer buffer = read(tiff.channel, position, count * size, tiff.order);
+            if (buffer == null) {
+                return new long[0];
+            }
+
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = size == 2 ? buffer.getShort(i * 2) & 0xFFFF : buffer.getInt(i * 4) & 0xFFFFFFFFL;
+            }
+            return values;
+        }
+
+        /**
+         * Returns the value of an ASCII entry without its terminating NUL, or null if it is missing.
+         */
+        String getString(int tag) throws IOException {
+            Entry entry = entries.get(tag);
+            if (entry == null || entry.type() != TYPE_ASCII || entry.count() == 0 || entry.count() > MAX_VALUES) {
+                return null;
+            }
+            ByteBuffer buffer = read(tiff.channel, getDataPosition(tag), (int) entry.count(), tiff.order);
+            if (buffer == null) {
+                return null;
+            }
+            int length = 0;
+            while (length < buffer.limit() && buffer.get(length) != 0) {
+                length++;
+            }
+            return new String(buffer.array(), 0, length, StandardCharsets.US_ASCII).trim();
+        }
+
+        /**
+         * Returns the file position of the data of an entry stored out of line, e.g. an UNDEFINED maker note.
+         */
+        long getDataPosition(int tag) throws IOException {
+            Entry entry = entries.get(tag);
+            if (entry == null) {
+                return -1;
+            }
+            if (entry.count() <= 4) {
+                return entry.valuePosition();
+            }
+            ByteBuffer pointer = read(tiff.channel, entry.valuePosition(), 4, tiff.order);
+            return pointer == null ? -1 : tiff.base + (pointer.getInt(0) & 0xFFFFFFFFL);
+        }
+    }
+}
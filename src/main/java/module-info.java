@@ -7,4 +7,12 @@ module com.efsavage.picknick {
 
 	opens com.efsavage.picknick to javafx.fxml;
 	exports com.efsavage.picknick;
+	exports com.efsavage.picknick.preview;
+
+	uses com.efsavage.picknick.preview.PreviewExtractor;
+	provides com.efsavage.picknick.preview.PreviewExtractor with
+			com.efsavage.picknick.preview.NefPreviewExtractor,
+			com.efsavage.picknick.preview.ArwPreviewExtractor,
+			com.efsavage.picknick.preview.DngPreviewExtractor,
+			com.efsavage.picknick.preview.Cr3PreviewExtractor;
 }
\ No newline at end of file
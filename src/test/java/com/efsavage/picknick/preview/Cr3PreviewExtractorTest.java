@@ -0,0 +1,144 @@
+package com.efsavage.picknick.preview;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.efsavage.picknick.preview.TestFiles.TYPE_ASCII;
+import static com.efsavage.picknick.preview.TestFiles.ascii;
+import static com.efsavage.picknick.preview.TestFiles.box;
+import static com.efsavage.picknick.preview.TestFiles.concat;
+import static com.efsavage.picknick.preview.TestFiles.entry;
+import static com.efsavage.picknick.preview.TestFiles.inline;
+import static com.efsavage.picknick.preview.TestFiles.ints;
+import static com.efsavage.picknick.preview.TestFiles.jpeg;
+import static com.efsavage.picknick.preview.TestFiles.uuidBox;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class Cr3PreviewExtractorTest {
+
+    static final UUID CANON_UUID = UUID.fromString("85c0b687-820f-11e0-8111-f4ce462b6a48");
+    static final UUID PREVIEW_UUID = UUID.fromString("eaf42b5e-1c98-4b88-b9fb-b7dc406e4d16");
+    static final byte[] FTYP = box("ftyp", "crx ".getBytes(StandardCharsets.US_ASCII));
+
+    @TempDir
+    Path tempDir;
+
+    private final Cr3PreviewExtractor extractor = new Cr3PreviewExtractor();
+
+    @Test
+    void findsThumbnailPreviewAndFirstTrackJpeg() throws IOException {
+        byte[] thumbnail = jpeg(160, 120);
+        byte[] preview = jpeg(1620, 1080);
+        byte[] fullSize = jpeg(6000, 4000);
+        byte[] rawSample = jpeg(6000, 4000);
+        // The mdat comes right after the ftyp, so the sample offsets are known before the moov is built
+        int fullSizeOffset = FTYP.length + 8;
+        int rawSampleOffset = fullSizeOffset + fullSize.length;
+        byte[] file = concat(FTYP,
+                box("mdat", fullSize, rawSample),
+                box("moov",
+                        uuidBox(CANON_UUID, thmb(thumbnail)),
+                        trak(stsz(0, fullSize.length), box("co64", ints(0, 1, 0, fullSizeOffset))),
+                        trak(stsz(0, rawSample.length), box("co64", ints(0, 1, 0, rawSampleOffset)))),
+                uuidBox(PREVIEW_UUID, new byte[8], prvw(preview)));
+
+        int moovOffset = fullSizeOffset + fullSize.length + rawSample.length;
+        // THMB sits after the moov header, the uuid header and its own header
+        int thumbnailOffset = moovOffset + 8 + 24 + 24;
+        // PRVW is the last box and its JPEG runs to the end of the file
+        int previewOffset = file.length - preview.length;
+        assertEquals(List.of(new EmbeddedPreview(thumbnailOffset, thumbnail.length, 160, 120),
+                        new EmbeddedPreview(fullSizeOffset, fullSize.length, 6000, 4000),
+                        new EmbeddedPreview(previewOffset, preview.length, 1620, 1080)),
+                extractor.findPreviews(write(file).toFile()));
+    }
+
+    @Test
+    void readsFirstSampleFromStcoWithDefaultSampleSize() throws IOException {
+        byte[] fullSize = jpeg(6000, 4000);
+        int fullSizeOffset = FTYP.length + 8;
+        byte[] file = concat(FTYP,
+                box("mdat", fullSize),
+                box("moov", trak(stsz(fullSize.length, 0), box("stco", ints(0, 1, fullSizeOffset)))));
+
+        assertEquals(List.of(new EmbeddedPreview(fullSizeOffset, fullSize.length, 6000, 4000)),
+                extractor.findPreviews(write(file).toFile()));
+    }
+
+    @Test
+    void readsDateTimeOriginalWithSubSecondsFromCmt2() throws IOException {
+        Path file = write(cr3(cmt1("2024:05:01 09:00:00"), cmt2("2024:05:01 10:15:30", "25")));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 250_000_000), extractor.readCaptureTime(file.toFile()));
+    }
+
+    @Test
+    void fallsBackToDateTimeFromCmt1() throws IOException {
+        Path file = write(cr3(cmt1("2024:05:01 09:00:00"), cmt2("", "")));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 9, 0), extractor.readCaptureTime(file.toFile()));
+    }
+
+    @Test
+    void returnsNullForFileWithoutMoov() throws IOException {
+        Path file = write(FTYP);
+        assertNull(extractor.readCaptureTime(file.toFile()));
+    }
+
+    private Path write(byte[] data) throws IOException {
+        Path file = tempDir.resolve("IMG_0001.CR3");
+        Files.write(file, data);
+        return file;
+    }
+
+    // Version and flags, then the width and height, then the JPEG length at +16 from the box start
+    private static byte[] thmb(byte[] jpeg) {
+        return box("THMB", ints(0, 0, jpeg.length, 0), jpeg);
+    }
+
+    // Two more unknown words than THMB, so the JPEG length is at +20 from the box start
+    private static byte[] prvw(byte[] jpeg) {
+        return box("PRVW", ints(0, 0, 0, jpeg.length), jpeg);
+    }
+
+    private static byte[] trak(byte[]... stbl) {
+        return box("trak", box("mdia", box("minf", box("stbl", stbl))));
+    }
+
+    // Version and flags, default sample size, sample count, then the size of the first sample
+    private static byte[] stsz(int defaultSize, int firstSize) {
+        return box("stsz", ints(0, defaultSize, 1, firstSize));
+    }
+
+    private static byte[] cr3(byte[] cmt1, byte[] cmt2) {
+        return concat(FTYP, box("moov", uuidBox(CANON_UUID, box("CMT1", cmt1), box("CMT2", cmt2))));
+    }
+
+    private static byte[] cmt1(String dateTime) {
+        byte[] value = ascii(dateTime);
+        return new TestFiles.TiffBuilder(ByteOrder.LITTLE_ENDIAN, 128)
+                .ifd(8, 0, entry(0x0132, TYPE_ASCII, value.length, 64))
+                .put(64, value)
+                .bytes();
+    }
+
+    // The sub-second value fits in four bytes, so it is stored inline in the entry
+    private static byte[] cmt2(String dateTimeOriginal, String subSecTimeOriginal) {
+        byte[] dateValue = ascii(dateTimeOriginal);
+        byte[] subSecValue = ascii(subSecTimeOriginal);
+        return new TestFiles.TiffBuilder(ByteOrder.LITTLE_ENDIAN, 128)
+                .ifd(8, 0,
+                        entry(0x9003, TYPE_ASCII, dateValue.length, 64),
+                        entry(0x9291, TYPE_ASCII, subSecValue.length, inline(subSecValue, ByteOrder.LITTLE_ENDIAN)))
+                .put(64, dateValue)
+                .bytes();
+    }
+}
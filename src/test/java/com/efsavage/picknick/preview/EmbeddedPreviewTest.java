@@ -0,0 +1,102 @@
+package com.efsavage.picknick.preview;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.efsavage.picknick.preview.TestFiles.jpeg;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EmbeddedPreviewTest {
+
+    private static final int PADDING = 16;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsBaselineFrameDimensions() throws IOException {
+        byte[] jpeg = jpeg(0xC0, 640, 424, false);
+        EmbeddedPreview preview = probe(jpeg);
+        assertNotNull(preview);
+        assertEquals(PADDING, preview.offset());
+        assertEquals(jpeg.length, preview.length());
+        assertEquals(640, preview.width());
+        assertEquals(424, preview.height());
+    }
+
+    @Test
+    void readsProgressiveFrameDimensions() throws IOException {
+        EmbeddedPreview preview = probe(jpeg(0xC2, 1620, 1080, false));
+        assertNotNull(preview);
+        assertEquals(1620, preview.width());
+        assertEquals(1080, preview.height());
+    }
+
+    @Test
+    void skipsFillBytesBeforeMarkers() throws IOException {
+        EmbeddedPreview preview = probe(jpeg(0xC0, 160, 120, true));
+        assertNotNull(preview);
+        assertEquals(160, preview.width());
+        assertEquals(120, preview.height());
+    }
+
+    @Test
+    void rejectsLosslessFrame() throws IOException {
+        assertNull(probe(jpeg(0xC3, 6000, 4000, false)));
+    }
+
+    @Test
+    void rejectsDataWithoutStartOfImage() throws IOException {
+        byte[] jpeg = jpeg(0xC0, 640, 424, false);
+        jpeg[1] = 0x00;
+        assertNull(probe(jpeg));
+    }
+
+    @Test
+    void rejectsScanBeforeFrame() throws IOException {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0x00, 0x02, 0x00, 0x00};
+        assertNull(probe(jpeg));
+    }
+
+    @Test
+    void rejectsPreviewPastEndOfFile() throws IOException {
+        byte[] jpeg = jpeg(0xC0, 640, 424, false);
+        Path file = write(jpeg);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertNull(EmbeddedPreview.probe(channel, PADDING, jpeg.length + PADDING + 1));
+        }
+    }
+
+    @Test
+    void copiesOnlyPreviewBytes() throws IOException {
+        byte[] jpeg = jpeg(0xC0, 640, 424, false);
+        Path file = write(jpeg);
+        Path copy = tempDir.resolve("copy.jpg");
+        new EmbeddedPreview(PADDING, jpeg.length, 640, 424).copyTo(file.toFile(), copy.toFile());
+        assertArrayEquals(jpeg, Files.readAllBytes(copy));
+    }
+
+    private EmbeddedPreview probe(byte[] jpeg) throws IOException {
+        try (FileChannel channel = FileChannel.open(write(jpeg), StandardOpenOption.READ)) {
+            return EmbeddedPreview.probe(channel, PADDING, jpeg.length);
+        }
+    }
+
+    // Writes the JPEG after some padding, as it would sit inside a raw file
+    private Path write(byte[] jpeg) throws IOException {
+        Path file = Files.createTempFile(tempDir, "raw", ".bin");
+        byte[] data = new byte[PADDING + jpeg.length + PADDING];
+        System.arraycopy(jpeg, 0, data, PADDING, jpeg.length);
+        Files.write(file, data);
+        return file;
+    }
+}
@@ -0,0 +1,36 @@
+package com.efsavage.picknick.preview;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExifDatesTest {
+
+    @Test
+    void parsesWallClockTime() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), ExifDates.parse("2024:05:01 10:15:30", null));
+    }
+
+    @Test
+    void appliesSubSecondDigitsAsLeadingFraction() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 500_000_000), ExifDates.parse("2024:05:01 10:15:30", "5"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 45_000_000), ExifDates.parse("2024:05:01 10:15:30", "045"));
+    }
+
+    @Test
+    void ignoresMalformedSubSeconds() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), ExifDates.parse("2024:05:01 10:15:30", " "));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), ExifDates.parse("2024:05:01 10:15:30", "4a"));
+    }
+
+    @Test
+    void rejectsMissingOrMalformedDates() {
+        assertNull(ExifDates.parse(null, "12"));
+        assertNull(ExifDates.parse("", null));
+        assertNull(ExifDates.parse("0000:00:00 00:00:00", null));
+        assertNull(ExifDates.parse("    :  :     :  :  ", null));
+    }
+}
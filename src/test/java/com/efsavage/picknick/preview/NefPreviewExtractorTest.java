@@ -0,0 +1,86 @@
+package com.efsavage.picknick.preview;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.efsavage.picknick.preview.TestFiles.TYPE_LONG;
+import static com.efsavage.picknick.preview.TestFiles.TYPE_UNDEFINED;
+import static com.efsavage.picknick.preview.TestFiles.concat;
+import static com.efsavage.picknick.preview.TestFiles.entry;
+import static com.efsavage.picknick.preview.TestFiles.jpeg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NefPreviewExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final NefPreviewExtractor extractor = new NefPreviewExtractor();
+
+    @Test
+    void readsNikonPreviewIfdRelativeToMakerNote() throws IOException {
+        byte[] fullSize = jpeg(6048, 4032);
+        byte[] makerNotePreview = jpeg(640, 424);
+        // The maker note TIFF starts after the signature and a version header, and its offsets count from there
+        byte[] makerNoteTiff = new TestFiles.TiffBuilder(ByteOrder.BIG_ENDIAN, 128)
+                .ifd(8, 0, entry(0x0011, TYPE_LONG, 1, 40))
+                .ifd(40, 0,
+                        entry(0x0201, TYPE_LONG, 1, 80),
+                        entry(0x0202, TYPE_LONG, 1, makerNotePreview.length))
+                .put(80, makerNotePreview)
+                .bytes();
+        byte[] makerNote = concat("Nikon\0".getBytes(StandardCharsets.US_ASCII),
+                new byte[]{0x02, 0x10, 0x00, 0x00}, makerNoteTiff);
+        byte[] nef = new TestFiles.TiffBuilder(ByteOrder.BIG_ENDIAN, 1100)
+                .ifd(8, 0,
+                        entry(0x014A, TYPE_LONG, 1, 100),
+                        entry(0x8769, TYPE_LONG, 1, 200))
+                .ifd(100, 0,
+                        entry(0x0201, TYPE_LONG, 1, 1000),
+                        entry(0x0202, TYPE_LONG, 1, fullSize.length))
+                .ifd(200, 0, entry(0x927C, TYPE_UNDEFINED, makerNote.length, 300))
+                .put(300, makerNote)
+                .put(1000, fullSize)
+                .bytes();
+
+        List<EmbeddedPreview> previews = extractor.findPreviews(write(nef));
+        assertEquals(List.of(new EmbeddedPreview(1000, fullSize.length, 6048, 4032),
+                new EmbeddedPreview(300 + 10 + 80, makerNotePreview.length, 640, 424)), previews);
+    }
+
+    @Test
+    void ignoresMakerNoteWithoutNikonSignature() throws IOException {
+        byte[] makerNotePreview = jpeg(640, 424);
+        byte[] makerNoteTiff = new TestFiles.TiffBuilder(ByteOrder.BIG_ENDIAN, 128)
+                .ifd(8, 0, entry(0x0011, TYPE_LONG, 1, 40))
+                .ifd(40, 0,
+                        entry(0x0201, TYPE_LONG, 1, 80),
+                        entry(0x0202, TYPE_LONG, 1, makerNotePreview.length))
+                .put(80, makerNotePreview)
+                .bytes();
+        byte[] makerNote = concat("Other\0".getBytes(StandardCharsets.US_ASCII),
+                new byte[]{0x02, 0x10, 0x00, 0x00}, makerNoteTiff);
+        byte[] nef = new TestFiles.TiffBuilder(ByteOrder.BIG_ENDIAN, 512)
+                .ifd(8, 0, entry(0x8769, TYPE_LONG, 1, 100))
+                .ifd(100, 0, entry(0x927C, TYPE_UNDEFINED, makerNote.length, 200))
+                .put(200, makerNote)
+                .bytes();
+
+        assertTrue(extractor.findPreviews(write(nef)).isEmpty());
+    }
+
+    private File write(byte[] data) throws IOException {
+        Path file = tempDir.resolve("DSC_0001.NEF");
+        Files.write(file, data);
+        return file.toFile();
+    }
+}
@@ -0,0 +1,65 @@
+package com.efsavage.picknick.preview;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PreviewExtractorsTest {
+
+    private final EmbeddedPreview thumbnail = new EmbeddedPreview(100, 10, 160, 120);
+    private final EmbeddedPreview preview = new EmbeddedPreview(200, 10, 1620, 1080);
+    private final EmbeddedPreview fullSize = new EmbeddedPreview(300, 10, 6000, 4000);
+    private final List<EmbeddedPreview> previews = List.of(fullSize, thumbnail, preview);
+
+    @Test
+    void loadsAllProvidersFromServiceLoader() {
+        Set<Class<?>> providers = new HashSet<>();
+        for (PreviewExtractor extractor : PreviewExtractors.getExtractors()) {
+            providers.add(extractor.getClass());
+        }
+        assertEquals(Set.of(NefPreviewExtractor.class, ArwPreviewExtractor.class, DngPreviewExtractor.class,
+                Cr3PreviewExtractor.class), providers);
+    }
+
+    @Test
+    void findsExtractorByExtension() {
+        assertInstanceOf(NefPreviewExtractor.class, PreviewExtractors.forFile(new File("DSC_0001.NEF")));
+        assertInstanceOf(ArwPreviewExtractor.class, PreviewExtractors.forFile(new File("DSC00001.arw")));
+        assertInstanceOf(DngPreviewExtractor.class, PreviewExtractors.forFile(new File("IMG_0001.DNG")));
+        assertInstanceOf(Cr3PreviewExtractor.class, PreviewExtractors.forFile(new File("IMG_0001.CR3")));
+        assertNull(PreviewExtractors.forFile(new File("IMG_0001.JPG")));
+    }
+
+    @Test
+    void selectsSmallestPreviewCoveringTarget() {
+        assertSame(thumbnail, PreviewExtractors.select(previews, 150, 100));
+        assertSame(preview, PreviewExtractors.select(previews, 1600, 1000));
+        assertSame(fullSize, PreviewExtractors.select(previews, 3000, 2000));
+    }
+
+    @Test
+    void previewCoveringOneDimensionIsNotUpscaled() {
+        // A 3:2 preview in a tall box fills the width and leaves bars above and below
+        assertSame(preview, PreviewExtractors.select(previews, 1620, 2000));
+        // A 3:2 preview in a wide box fills the height and leaves bars at the sides
+        assertSame(preview, PreviewExtractors.select(previews, 4000, 1080));
+    }
+
+    @Test
+    void fallsBackToLargestPreview() {
+        assertSame(fullSize, PreviewExtractors.select(previews, 8000, 6000));
+    }
+
+    @Test
+    void returnsNullWithoutPreviews() {
+        assertNull(PreviewExtractors.select(List.of(), 800, 600));
+    }
+}
@@ -0,0 +1,160 @@
+package com.efsavage.picknick.preview;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Builders for the small crafted JPEG, TIFF and ISO base media files the extractor tests read.
+ */
+final class TestFiles {
+
+    static final int TYPE_ASCII = 2;
+    static final int TYPE_SHORT = 3;
+    static final int TYPE_LONG = 4;
+    static final int TYPE_UNDEFINED = 7;
+
+    private TestFiles() {
+    }
+
+    /**
+     * SOI, an APP0 segment, an optional run of fill bytes, a frame header and EOI.
+     */
+    static byte[] jpeg(int frameMarker, int width, int height, boolean fillBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0xFF);
+        out.write(0xD8);
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xE0, 0x00, 0x07, 'J', 'F', 'I', 'F', 0x00});
+        if (fillBytes) {
+            out.write(0xFF);
+            out.write(0xFF);
+        }
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) frameMarker, 0x00, 0x0B, 0x08,
+                (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width,
+                0x01, 0x01, 0x11, 0x00});
+        out.write(0xFF);
+        out.write(0xD9);
+        return out.toByteArray();
+    }
+
+    static byte[] jpeg(int width, int height) {
+        return jpeg(0xC0, width, height, false);
+    }
+
+    static byte[] ascii(String value) {
+        return (value + "\0").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Big-endian 32-bit values, the way ISO base media boxes store their fields.
+     */
+    static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    static byte[] box(String type, byte[]... content) {
+        byte[] body = concat(content);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + body.length);
+        buffer.putInt(8 + body.length).put(type.getBytes(StandardCharsets.US_ASCII)).put(body);
+        return buffer.array();
+    }
+
+    static byte[] uuidBox(UUID uuid, byte[]... content) {
+        ByteBuffer id = ByteBuffer.allocate(16);
+        id.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        return box("uuid", id.array(), concat(content));
+    }
+
+    static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] part : parts) {
+            buffer.put(part);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Lays out a TIFF at fixed offsets. Entries are {tag, type, count, value}; values that don't fit in
+     * four bytes are offsets to data written with {@link #put}.
+     */
+    static final class TiffBuilder {
+        private final ByteBuffer buffer;
+        private int length = 8;
+
+        TiffBuilder(ByteOrder order, int size) {
+            buffer = ByteBuffer.allocate(size).order(order);
+            buffer.put(0, (byte) (order == ByteOrder.LITTLE_ENDIAN ? 'I' : 'M'));
+            buffer.put(1, (byte) (order == ByteOrder.LITTLE_ENDIAN ? 'I' : 'M'));
+            buffer.putShort(2, (short) 42);
+            buffer.putInt(4, 8);
+        }
+
+        TiffBuilder firstIfd(int offset) {
+            buffer.putInt(4, offset);
+            return this;
+        }
+
+        TiffBuilder ifd(int offset, int nextIfd, int[]... entries) {
+            buffer.putShort(offset, (short) entries.length);
+            int position = offset + 2;
+            for (int[] entry : entries) {
+                buffer.putShort(position, (short) entry[0]);
+                buffer.putShort(position + 2, (short) entry[1]);
+                buffer.putInt(position + 4, entry[2]);
+                if (entry[1] == TYPE_SHORT && entry[2] == 1) {
+                    buffer.putShort(position + 8, (short) entry[3]);
+                    buffer.putShort(position + 10, (short) 0);
+                } else {
+                    buffer.putInt(position + 8, entry[3]);
+                }
+                position += 12;
+            }
+            buffer.putInt(position, nextIfd);
+            length = Math.max(length, position + 4);
+            return this;
+        }
+
+        TiffBuilder put(int offset, byte[] data) {
+            buffer.put(offset, data);
+            length = Math.max(length, offset + data.length);
+            return this;
+        }
+
+        TiffBuilder putLongs(int offset, int... values) {
+            for (int i = 0; i < values.length; i++) {
+                buffer.putInt(offset + i * 4, values[i]);
+            }
+            length = Math.max(length, offset + values.length * 4);
+            return this;
+        }
+
+        byte[] bytes() {
+            byte[] bytes = new byte[length];
+            buffer.get(0, bytes);
+            return bytes;
+        }
+    }
+
+    static int[] entry(int tag, int type, int count, int value) {
+        return new int[]{tag, type, count, value};
+    }
+
+    /**
+     * Packs up to four bytes into an entry value so they land in the value field as-is, like short ASCII values.
+     */
+    static int inline(byte[] value, ByteOrder order) {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(order);
+        buffer.put(value);
+        return buffer.getInt(0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.efsavage.picknick.preview;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static com.efsavage.picknick.preview.TestFiles.TYPE_LONG;
+import static com.efsavage.picknick.preview.TestFiles.TYPE_SHORT;
+import static com.efsavage.picknick.preview.TestFiles.entry;
+import static com.efsavage.picknick.preview.TestFiles.jpeg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TiffPreviewExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void followsIfdChainForJpegInterchangeFormat() throws IOException {
+        byte[] preview = jpeg(1616, 1080);
+        byte[] thumbnail = jpeg(160, 120);
+        byte[] arw = new TestFiles.TiffBuilder(ByteOrder.LITTLE_ENDIAN, 512)
+                .ifd(8, 100,
+                        entry(0x0201, TYPE_LONG, 1, 200),
+                        entry(0x0202, TYPE_LONG, 1, preview.length))
+                .ifd(100, 0,
+                        entry(0x0201, TYPE_LONG, 1, 300),
+                        entry(0x0202, TYPE_LONG, 1, thumbnail.length))
+                .put(200, preview)
+                .put(300, thumbnail)
+                .bytes();
+
+        List<EmbeddedPreview> previews = new ArwPreviewExtractor().findPreviews(write("DSC00001.ARW", arw));
+        assertEquals(List.of(new EmbeddedPreview(200, preview.length, 1616, 1080),
+                new EmbeddedPreview(300, thumbnail.length, 160, 120)), previews);
+    }
+
+    @Test
+    void collectsReducedResolutionStripsFromSubIfds() throws IOException {
+        byte[] thumbnail = jpeg(256, 171);
+        byte[] raw = jpeg(6000, 4000);
+        byte[] preview = jpeg(1024, 683);
+        byte[] nested = jpeg(320, 213);
+        byte[] dng = new TestFiles.TiffBuilder(ByteOrder.BIG_ENDIAN, 1024)
+                .ifd(8, 0,
+                        entry(0x00FE, TYPE_LONG, 1, 1),
+                        entry(0x0103, TYPE_SHORT, 1, 7),
+                        entry(0x0111, TYPE_LONG, 1, 400),
+                        entry(0x0117, TYPE_LONG, 1, thumbnail.length),
+                        entry(0x014A, TYPE_LONG, 2, 80))
+                .putLongs(80, 120, 200)
+                // The raw image is a JPEG strip too, but it is not marked as reduced resolution
+                .ifd(120, 0,
+                        entry(0x00FE, TYPE_LONG, 1, 0),
+                        entry(0x0103, TYPE_SHORT, 1, 7),
+                        entry(0x0111, TYPE_LONG, 1, 500),
+                        entry(0x0117, TYPE_LONG, 1, raw.length),
+                        entry(0x014A, TYPE_LONG, 1, 300))
+                .ifd(200, 0,
+                        entry(0x00FE, TYPE_LONG, 1, 1),
+                        entry(0x0103, TYPE_SHORT, 1, 7),
+                        entry(0x0111, TYPE_LONG, 1, 600),
+                        entry(0x0117, TYPE_LONG, 1, preview.length))
+                .ifd(300, 0,
+                        entry(0x0201, TYPE_LONG, 1, 700),
+                        entry(0x0202, TYPE_LONG, 1, nested.length))
+                .put(400, thumbnail)
+                .put(500, raw)
+                .put(600, preview)
+                .put(700, nested)
+                .bytes();
+
+        List<EmbeddedPreview> previews = new DngPreviewExtractor().findPreviews(write("IMG_0001.DNG", dng));
+        assertEquals(Set.of(new EmbeddedPreview(400, thumbnail.length, 256, 171),
+                new EmbeddedPreview(600, preview.length, 1024, 683),
+                new EmbeddedPreview(700, nested.length, 320, 213)), Set.copyOf(previews));
+        assertEquals(3, previews.size());
+    }
+
+    @Test
+    void ignoresStripsOfUncompressedImages() throws IOException {
+        byte[] thumbnail = jpeg(256, 171);
+        byte[] dng = new TestFiles.TiffBuilder(ByteOrder.LITTLE_ENDIAN, 512)
+                .ifd(8, 0,
+                        entry(0x00FE, TYPE_LONG, 1, 1),
+                        entry(0x0103, TYPE_SHORT, 1, 1),
+                        entry(0x0111, TYPE_LONG, 1, 200),
+                        entry(0x0117, TYPE_LONG, 1, thumbnail.length))
+                .put(200, thumbnail)
+                .bytes();
+
+        assertTrue(new DngPreviewExtractor().findPreviews(write("IMG_0001.DNG", dng)).isEmpty());
+    }
+
+    @Test
+    void returnsNothingForNonTiffFile() throws IOException {
+        byte[] data = "not a raw file".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(new ArwPreviewExtractor().findPreviews(write("DSC00001.ARW", data)).isEmpty());
+    }
+
+    private File write(String name, byte[] data) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, data);
+        return file.toFile();
+    }
+}